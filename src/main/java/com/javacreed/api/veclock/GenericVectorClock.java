@@ -1,7 +1,9 @@
 package com.javacreed.api.veclock;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -32,6 +34,24 @@ import net.jcip.annotations.Immutable;
 @Immutable
 public class GenericVectorClock<N, V extends Version<V>> {
 
+  /**
+   * Compares two nodes in a deterministic manner. Nodes of different types are ordered by their class name, nodes that
+   * implement {@link Comparable} are ordered by their natural order while all other nodes are ordered by their string
+   * representation. Different nodes may compare as equal, in which case their order depends on the map holding them.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private static int compareNodes(final Object a, final Object b) {
+    if (a.getClass() != b.getClass()) {
+      return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+
+    if (a instanceof Comparable) {
+      return ((Comparable) a).compareTo(b);
+    }
+
+    return a.toString().compareTo(b.toString());
+  }
+
   /**
    * Creates an instance of this class with the given node as the reference and the initial version
    *
@@ -61,6 +81,8 @@ public class GenericVectorClock<N, V extends Version<V>> {
   private final Supplier<Map<N, V>> mapFactory;
 
   private String lazyToString;
+  private int lazyHashCode;
+  private List<Map.Entry<N, V>> lazySortedVersions;
 
   protected GenericVectorClock(final N reference, final Map<N, V> versions, final Supplier<Map<N, V>> mapFactory)
       throws NullPointerException {
@@ -127,7 +149,12 @@ public class GenericVectorClock<N, V extends Version<V>> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(reference, versions);
+    /* The map's hash code does not depend on the iteration order, thus is the same for any map implementation */
+    if (lazyHashCode == 0) {
+      lazyHashCode = Objects.hash(reference, versions);
+    }
+
+    return lazyHashCode;
   }
 
   public GenericVectorClock<N, V> next() {
@@ -137,15 +164,63 @@ public class GenericVectorClock<N, V extends Version<V>> {
     return new GenericVectorClock<N, V>(reference, versions, mapFactory);
   }
 
+  public N node() {
+    return reference;
+  }
+
   public int size() {
     return versions.size();
   }
 
+  /**
+   * Returns the versions observed by this clock sorted by node, irrespective of the map used to hold the versions. The
+   * sorted list is created once and then reused, as this clock is immutable. Nodes that implement {@link Comparable}
+   * are sorted by their natural order, otherwise these are sorted by their string representation. Therefore, different
+   * nodes must either compare as different, or have different string representations when these are not
+   * {@link Comparable}.
+   *
+   * @return the versions observed by this clock, sorted by node
+   * @throws IllegalStateException
+   *           if two different nodes cannot be ordered
+   */
+  public List<Map.Entry<N, V>> sortedVersions() throws IllegalStateException {
+    final List<Map.Entry<N, V>> sorted = sorted();
+
+    /* Nodes that cannot be ordered end up next to each other */
+    for (int i = 1, size = sorted.size(); i < size; i++) {
+      final N a = sorted.get(i - 1).getKey();
+      final N b = sorted.get(i).getKey();
+      if (GenericVectorClock.compareNodes(a, b) == 0 && false == a.equals(b)) {
+        throw new IllegalStateException("Nodes " + a + " and " + b + " are different but cannot be ordered");
+      }
+    }
+
+    return sorted;
+  }
+
+  private List<Map.Entry<N, V>> sorted() {
+    if (lazySortedVersions == null) {
+      final List<Map.Entry<N, V>> sorted = new ArrayList<>(versions.entrySet());
+      sorted.sort((a, b) -> GenericVectorClock.compareNodes(a.getKey(), b.getKey()));
+      lazySortedVersions = Collections.unmodifiableList(sorted);
+    }
+
+    return lazySortedVersions;
+  }
+
+  /**
+   * Returns the canonical encoding of this clock, which lists the versions in the order returned by
+   * {@link #sortedVersions()}, such as <code>[a:2,b:5,c:1]</code>. Equal clocks have the same encoding, irrespective of
+   * the map used to hold the versions. Unlike {@link #sortedVersions()}, this method never fails: nodes that cannot be
+   * ordered are listed in the order of the map holding them.
+   *
+   * @return the canonical encoding of this clock
+   */
   @Override
   public String toString() {
     if (lazyToString == null) {
       final StringBuilder formatted = new StringBuilder("[");
-      versions.forEach((k, v) -> formatted.append(k).append(":").append(v).append(","));
+      sorted().forEach(e -> formatted.append(e.getKey()).append(":").append(e.getValue()).append(","));
       formatted.setCharAt(formatted.length() - 1, ']');
       lazyToString = formatted.toString();
     }
@@ -160,4 +235,14 @@ public class GenericVectorClock<N, V extends Version<V>> {
   public Optional<V> version(final Node node) {
     return Optional.ofNullable(versions.get(node));
   }
+
+  /**
+   * Returns an unmodifiable view of the versions observed by this clock, including the version of this clock's node.
+   * The iteration order depends on the map holding the versions; use {@link #sortedVersions()} when the order matters.
+   *
+   * @return the versions observed by this clock
+   */
+  public Map<N, V> versions() {
+    return versions;
+  }
 }
@@ -35,6 +35,10 @@ public class LongVersion implements Version<LongVersion> {
     return version == ((LongVersion) object).version;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
   @Override
   public int hashCode() {
     return (int) (version ^ version >>> 32);
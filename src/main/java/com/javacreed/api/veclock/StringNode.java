@@ -7,6 +7,19 @@ import net.jcip.annotations.Immutable;
 @Immutable
 public class StringNode implements Node, Comparable<StringNode> {
 
+  /**
+   * Computes the hash code of the given name in the same manner as {@link String#hashCode()}, after folding every
+   * character the same way {@link String#equalsIgnoreCase(String)} does. Therefore, names that are equal ignoring case
+   * have the same hash code, irrespective of the default locale.
+   */
+  private static int hashCode(final String name) {
+    int hashCode = 0;
+    for (int i = 0, length = name.length(); i < length; i++) {
+      hashCode = 31 * hashCode + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+    }
+    return hashCode;
+  }
+
   public static StringNode of(final String name) throws NullPointerException, IllegalArgumentException {
     Preconditions.checkNotNull(name);
     Preconditions.checkArgument(name.length() > 0);
@@ -22,7 +35,7 @@ public class StringNode implements Node, Comparable<StringNode> {
 
   private StringNode(final String name) {
     this.name = name;
-    this.hashCode = name.toLowerCase().hashCode();
+    this.hashCode = StringNode.hashCode(name);
   }
 
   @Override
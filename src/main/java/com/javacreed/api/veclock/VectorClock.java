@@ -1,10 +1,12 @@
 package com.javacreed.api.veclock;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import net.jcip.annotations.Immutable;
 
@@ -31,7 +33,9 @@ import net.jcip.annotations.Immutable;
  * Both versions of add() methods expect a different node from the current one, otherwise, both will fail with an
  * IllegalArgumentException.
  *
- * This class is immutable by design and a new instance is returned every time this class is modified.
+ * This class is immutable by design and a new instance is returned every time this class is modified. The versions are
+ * held in a hash map, while the {@link #toString()} and {@link #sortedVersions()} methods always list the nodes in
+ * order.
  *
  * @author Albert Attard
  */
@@ -50,7 +54,7 @@ public class VectorClock {
     Preconditions.checkNotNull(node);
     Preconditions.checkNotNull(version);
 
-    final Map<StringNode, LongVersion> versions = new TreeMap<>();
+    final Map<StringNode, LongVersion> versions = new HashMap<>();
     versions.put(node, version);
     return new VectorClock(node, versions);
   }
@@ -59,11 +63,13 @@ public class VectorClock {
   private final Map<StringNode, LongVersion> versions;
 
   private String lazyToString;
+  private int lazyHashCode;
+  private List<Map.Entry<StringNode, LongVersion>> lazySortedVersions;
 
   protected VectorClock(final StringNode reference, final Map<StringNode, LongVersion> versions)
       throws NullPointerException {
     this.reference = Preconditions.checkNotNull(reference);
-    this.versions = Collections.unmodifiableMap(new TreeMap<>(versions));
+    this.versions = Collections.unmodifiableMap(new HashMap<>(versions));
   }
 
   public VectorClock add(final StringNode node, final LongVersion version)
@@ -72,7 +78,7 @@ public class VectorClock {
     Preconditions.checkNotNull(version);
     Preconditions.checkArgument(false == node.equals(reference));
 
-    final Map<StringNode, LongVersion> versions = new TreeMap<>(this.versions);
+    final Map<StringNode, LongVersion> versions = new HashMap<>(this.versions);
 
     /* TODO: What should happen when the given version is less than the existing version */
     versions.merge(node, version, (n, v) -> version.next(v));
@@ -87,7 +93,7 @@ public class VectorClock {
     Preconditions.checkNotNull(other);
     Preconditions.checkArgument(false == other.reference.equals(reference));
 
-    final Map<StringNode, LongVersion> versions = new TreeMap<>(this.versions);
+    final Map<StringNode, LongVersion> versions = new HashMap<>(this.versions);
 
     /* TODO: What should happen when the given version is less than the existing version */
     versions.merge(other.reference, other.version(), (n, v) -> other.version().next(v));
@@ -100,6 +106,38 @@ public class VectorClock {
     return new VectorClock(reference, versions);
   }
 
+  /**
+   * Returns {@code true} if this clock has observed all versions observed by the given clock, that is, every version
+   * in the given clock is equal to or older than the version of the same node in this clock. Note that a clock
+   * dominates an equal clock.
+   *
+   * @param other
+   *          the clock to compare with
+   * @return {@code true} if this clock has observed all versions observed by the given clock
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   */
+  public boolean dominates(final VectorClock other) throws NullPointerException {
+    Preconditions.checkNotNull(other);
+
+    if (this == other) {
+      return true;
+    }
+
+    if (other.versions.size() > versions.size()) {
+      return false;
+    }
+
+    for (final Map.Entry<StringNode, LongVersion> entry : other.versions.entrySet()) {
+      final LongVersion version = versions.get(entry.getKey());
+      if (version == null || version.getVersion() < entry.getValue().getVersion()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   @Override
   public boolean equals(final Object object) {
     if (this == object) {
@@ -116,24 +154,80 @@ public class VectorClock {
 
   @Override
   public int hashCode() {
-    return Objects.hash(reference, versions);
+    /* The map's hash code does not depend on the iteration order, thus is the same for any map implementation */
+    if (lazyHashCode == 0) {
+      lazyHashCode = Objects.hash(reference, versions);
+    }
+
+    return lazyHashCode;
+  }
+
+  /**
+   * Returns a clock of this clock's node, which holds the latest version of every node observed by this or the given
+   * clock. Unlike {@link #add(VectorClock)}, no version is moved to the next, thus merging a clock that was already
+   * observed returns an equal clock. This is used by replicas that exchange clocks without recording an event.
+   *
+   * @param other
+   *          the clock to merge with
+   * @return this clock if it already observed all versions of the given clock, otherwise a new clock with the latest
+   *         versions of both clocks
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   */
+  public VectorClock max(final VectorClock other) throws NullPointerException {
+    Preconditions.checkNotNull(other);
+
+    if (dominates(other)) {
+      return this;
+    }
+
+    final Map<StringNode, LongVersion> versions = new HashMap<>(this.versions);
+    other.versions.forEach((n, v) -> versions.merge(n, v, LongVersion::max));
+    return new VectorClock(reference, versions);
   }
 
   public VectorClock next() {
-    final Map<StringNode, LongVersion> versions = new TreeMap<>(this.versions);
+    final Map<StringNode, LongVersion> versions = new HashMap<>(this.versions);
     versions.put(reference, versions.get(reference).next());
     return new VectorClock(reference, versions);
   }
 
+  public StringNode node() {
+    return reference;
+  }
+
   public int size() {
     return versions.size();
   }
 
+  /**
+   * Returns the versions observed by this clock sorted by node, irrespective of the map used to hold the versions. The
+   * sorted list is created once and then reused, as this clock is immutable.
+   *
+   * @return the versions observed by this clock, sorted by node
+   */
+  public List<Map.Entry<StringNode, LongVersion>> sortedVersions() {
+    if (lazySortedVersions == null) {
+      final List<Map.Entry<StringNode, LongVersion>> sorted = new ArrayList<>(versions.entrySet());
+      sorted.sort(Map.Entry.comparingByKey());
+      lazySortedVersions = Collections.unmodifiableList(sorted);
+    }
+
+    return lazySortedVersions;
+  }
+
+  /**
+   * Returns the canonical encoding of this clock, which lists the versions in the order returned by
+   * {@link #sortedVersions()}, such as <code>[a:2,b:5,c:1]</code>. Equal clocks have the same encoding, irrespective of
+   * the map used to hold the versions.
+   *
+   * @return the canonical encoding of this clock
+   */
   @Override
   public String toString() {
     if (lazyToString == null) {
       final StringBuilder formatted = new StringBuilder("[");
-      versions.forEach((k, v) -> formatted.append(k).append(":").append(v).append(","));
+      sortedVersions().forEach(e -> formatted.append(e.getKey()).append(":").append(e.getValue()).append(","));
       formatted.setCharAt(formatted.length() - 1, ']');
       lazyToString = formatted.toString();
     }
@@ -148,4 +242,14 @@ public class VectorClock {
   public Optional<LongVersion> version(final Node node) {
     return Optional.ofNullable(versions.get(node));
   }
+
+  /**
+   * Returns an unmodifiable view of the versions observed by this clock, including the version of this clock's node.
+   * The iteration order depends on the map holding the versions; use {@link #sortedVersions()} when the order matters.
+   *
+   * @return the versions observed by this clock
+   */
+  public Map<StringNode, LongVersion> versions() {
+    return versions;
+  }
 }
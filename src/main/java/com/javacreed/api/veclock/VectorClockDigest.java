@@ -0,0 +1,260 @@
+package com.javacreed.api.veclock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A Merkle tree over the clocks of a set of keys, which allows two replicas to find the keys whose clocks differ by
+ * exchanging hashes rather than clocks.
+ * <p>
+ * The keys are spread over a fixed number of buckets (the leaves of the tree), based on their hash code. Each bucket
+ * hash is the sum of the hashes of its keys and their clocks, while each branch hash combines the hashes of its two
+ * children. Two replicas compare the root hashes first and then only descend into the branches whose hashes differ,
+ * until they reach the buckets that differ. Only the clocks of the keys within these buckets need to be exchanged,
+ * thus the traffic depends on how much the replicas diverged rather than on the number of keys.
+ * <p>
+ * Updating or removing a key only updates its bucket and the branches above it, that is, <code>O(depth)</code> hashes.
+ * The hashes only depend on the keys and the versions of the clocks, but not on the nodes owning the clocks, as each
+ * replica owns its own clocks. Therefore two replicas produce the same hashes for the same versions provided that the
+ * keys' {@link Object#hashCode()} is the same on both replicas (as is the case for {@link String} and {@link Long}).
+ * <p>
+ * This class is thread-safe. A {@link VectorClockTable} created with a digest (see
+ * {@link VectorClockTable#createWithDigest(StringNode, int)}) updates it after every change to its clocks, thus the
+ * digest does not need to be rebuilt from the table. Bucket hashes are sums, so updates to the same bucket can be
+ * applied in any order, while the hash of each branch is recomputed under a lock, so that once the updates complete the
+ * hashes are those of the final content. Hashes read while updates are in progress may not reflect all of them, and
+ * the following round of anti-entropy picks up the rest.
+ *
+ * @author Albert Attard
+ *
+ * @see VectorClockTable
+ *
+ * @param <K>
+ *          the key type
+ */
+@ThreadSafe
+public class VectorClockDigest<K> {
+
+  /* The tree of the deepest digest holds 2^17 hashes, that is, 1 MiB */
+  private static final int MAX_DEPTH = 16;
+
+  private static final int LOCKS = 64;
+
+  /**
+   * Returns a 64 bit hash of the versions of the given clock, in node order. The node owning the clock is not part of
+   * the hash, thus clocks of different replicas that observed the same versions have the same hash. The hash codes of
+   * the nodes do not depend on the default locale, therefore the hash does not depend on the JVM computing it.
+   *
+   * @param clock
+   *          the clock to hash
+   * @return the hash of the given clock
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   */
+  public static long hash(final VectorClock clock) throws NullPointerException {
+    Preconditions.checkNotNull(clock);
+
+    long hash = 0;
+    for (final Map.Entry<StringNode, LongVersion> entry : clock.sortedVersions()) {
+      hash = VectorClockDigest.mix(hash * 31 + entry.getKey().hashCode());
+      hash = VectorClockDigest.mix(hash * 31 + entry.getValue().getVersion());
+    }
+    return hash;
+  }
+
+  /* The finaliser of the SplitMix64 generator, which spreads the bits of the given value */
+  private static long mix(long value) {
+    value = (value ^ value >>> 30) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ value >>> 27) * 0x94d049bb133111ebL;
+    return value ^ value >>> 31;
+  }
+
+  /**
+   * Creates an empty digest with <code>2<sup>depth</sup></code> buckets
+   *
+   * @param depth
+   *          the depth of the tree, between 0 and 16 (both inclusive)
+   * @return an empty digest
+   * @throws IllegalArgumentException
+   *           if the depth is out of range
+   */
+  public static <Kk> VectorClockDigest<Kk> of(final int depth) throws IllegalArgumentException {
+    Preconditions.checkArgument(depth >= 0 && depth <= VectorClockDigest.MAX_DEPTH);
+    return new VectorClockDigest<>(depth);
+  }
+
+  private final int depth;
+
+  /* The tree is stored as a heap, where the root is at index 1 and the buckets are in the second half of the array */
+  private final AtomicLongArray tree;
+  private final int leaves;
+
+  /* The keys of each bucket, where buckets are only created when the first key is added to them */
+  private final ConcurrentMap<Integer, ConcurrentMap<K, Long>> buckets = new ConcurrentHashMap<>();
+  private final AtomicInteger size = new AtomicInteger();
+
+  /* Striped locks guarding the recomputation of the branch hashes */
+  private final Object[] locks = new Object[VectorClockDigest.LOCKS];
+
+  private VectorClockDigest(final int depth) {
+    this.depth = depth;
+    this.leaves = 1 << depth;
+    this.tree = new AtomicLongArray(leaves << 1);
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  public int bucket(final K key) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    return depth == 0 ? 0 : (int) (VectorClockDigest.mix(key.hashCode()) >>> 64 - depth);
+  }
+
+  public int buckets() {
+    return leaves;
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  /**
+   * Returns the buckets whose hashes differ from those of the same buckets in the given digest, visiting only the
+   * branches whose hashes differ. The clocks of the keys in these buckets need to be exchanged to reconcile the two
+   * replicas.
+   *
+   * @param other
+   *          the digest to compare with, which must have the same depth as this one
+   * @return the buckets that differ, in ascending order
+   * @throws NullPointerException
+   *           if the other digest is {@code null}
+   * @throws IllegalArgumentException
+   *           if the other digest has a different depth
+   */
+  public List<Integer> differences(final VectorClockDigest<K> other)
+      throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(other);
+    Preconditions.checkArgument(depth == other.depth);
+
+    final List<Integer> differences = new ArrayList<>();
+    collectDifferences(other, 1, differences);
+    return differences;
+  }
+
+  private void collectDifferences(final VectorClockDigest<K> other, final int index, final List<Integer> differences) {
+    if (tree.get(index) == other.tree.get(index)) {
+      return;
+    }
+
+    if (index >= leaves) {
+      differences.add(index - leaves);
+      return;
+    }
+
+    collectDifferences(other, index << 1, differences);
+    collectDifferences(other, (index << 1) + 1, differences);
+  }
+
+  /**
+   * Returns the hash of the branch at the given level and position within that level. The root is at level 0 while the
+   * buckets are at the level equal to the depth.
+   *
+   * @param level
+   *          the level, between 0 and the depth (both inclusive)
+   * @param index
+   *          the position within the level, between 0 (inclusive) and <code>2<sup>level</sup></code> (exclusive)
+   * @return the hash of the branch
+   * @throws IllegalArgumentException
+   *           if the level or the index are out of range
+   */
+  public long hash(final int level, final int index) throws IllegalArgumentException {
+    Preconditions.checkArgument(level >= 0 && level <= depth);
+    Preconditions.checkArgument(index >= 0 && index < 1 << level);
+    return tree.get((1 << level) + index);
+  }
+
+  public Set<K> keys(final int bucket) throws IllegalArgumentException {
+    Preconditions.checkArgument(bucket >= 0 && bucket < leaves);
+
+    final Map<K, Long> entries = buckets.get(bucket);
+    return entries == null ? Collections.emptySet() : Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Adds or replaces the clock of the given key and updates the hashes of its bucket and the branches above it
+   *
+   * @param key
+   *          the key
+   * @param clock
+   *          the key's clock
+   * @return this digest
+   * @throws NullPointerException
+   *           if any of the parameters is {@code null}
+   */
+  public VectorClockDigest<K> put(final K key, final VectorClock clock) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(clock);
+
+    final int bucket = bucket(key);
+    final Map<K, Long> entries = buckets.computeIfAbsent(bucket, b -> new ConcurrentHashMap<>());
+    final long hash = VectorClockDigest.mix(key.hashCode() * 31L + VectorClockDigest.hash(clock));
+    final Long previous = entries.put(key, hash);
+    if (previous == null) {
+      size.incrementAndGet();
+    }
+
+    update(bucket, hash - (previous == null ? 0 : previous));
+    return this;
+  }
+
+  /**
+   * Removes the given key and updates the hashes of its bucket and the branches above it
+   *
+   * @param key
+   *          the key
+   * @return this digest
+   * @throws NullPointerException
+   *           if the key is {@code null}
+   */
+  public VectorClockDigest<K> remove(final K key) throws NullPointerException {
+    final int bucket = bucket(key);
+    final Map<K, Long> entries = buckets.get(bucket);
+    final Long previous = entries == null ? null : entries.remove(key);
+    if (previous != null) {
+      size.decrementAndGet();
+      update(bucket, -previous);
+    }
+
+    return this;
+  }
+
+  public long rootHash() {
+    return tree.get(1);
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  private void update(final int bucket, final long delta) {
+    int index = leaves + bucket;
+    tree.addAndGet(index, delta);
+
+    /* Reading the children and writing the parent under the same lock prevents a stale hash from being written last */
+    for (index >>>= 1; index > 0; index >>>= 1) {
+      final int left = index << 1;
+      synchronized (locks[index % locks.length]) {
+        tree.set(index, VectorClockDigest.mix(tree.get(left) * 31 + tree.get(left + 1)));
+      }
+    }
+  }
+}
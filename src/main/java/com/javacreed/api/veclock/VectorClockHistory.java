@@ -0,0 +1,244 @@
+package com.javacreed.api.veclock;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * An append only index over the successive {@link VectorClock}s of one node, which answers questions such as "which
+ * local clock first observed the given clock?" without comparing every stored clock.
+ * <p>
+ * A node's clock never goes back in time: every version within the clock can only stay the same or move forward, and
+ * nodes are never removed once observed. This class takes advantage of this and stores the history as one column of
+ * versions per node, where each column is sorted by definition. Each column starts at the index where the node was
+ * first observed, therefore a node that was seen late only occupies the space it needs. The following queries are
+ * answered through a binary search per node, that is, <code>O(nodes &middot; log history)</code>:
+ * <ol>
+ * <li>{@link #firstSeen(StringNode, LongVersion)} returns the index of the first clock that observed the given version
+ * of the given node</li>
+ * <li>{@link #firstDominating(VectorClock)} returns the index of the first clock that observed all versions of the
+ * given clock</li>
+ * </ol>
+ *
+ * Only clocks that belong to the same node and that follow the previous clock can be appended, otherwise the
+ * {@link #append(VectorClock)} method fails with an IllegalArgumentException.
+ *
+ * This class is not thread-safe and needs to be guarded externally when shared between threads.
+ *
+ * @author Albert Attard
+ *
+ * @see VectorClock
+ */
+@NotThreadSafe
+public class VectorClockHistory {
+
+  /**
+   * The versions of one node, starting from the index where the node was first observed
+   */
+  private static class Column {
+
+    private final int start;
+    private long[] versions = new long[8];
+    private int length;
+
+    private Column(final int start) {
+      this.start = start;
+    }
+
+    private void append(final long version) {
+      if (length == versions.length) {
+        versions = Arrays.copyOf(versions, length << 1);
+      }
+      versions[length++] = version;
+    }
+
+    /**
+     * Returns the index (within the history) of the first version which is equal to or greater than the given version,
+     * or {@code -1} if none
+     */
+    private int firstAtLeast(final long version) {
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (versions[middle] < version) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+
+      return low == length ? -1 : start + low;
+    }
+
+    private boolean isObservedAt(final int index) {
+      return index >= start;
+    }
+
+    private long last() {
+      return versions[length - 1];
+    }
+
+    private long versionAt(final int index) {
+      return versions[index - start];
+    }
+  }
+
+  public static VectorClockHistory of(final StringNode node) throws NullPointerException {
+    Preconditions.checkNotNull(node);
+    return new VectorClockHistory(node);
+  }
+
+  private final StringNode reference;
+  private final Map<StringNode, Column> columns = new HashMap<>();
+  private int size;
+
+  private VectorClockHistory(final StringNode reference) {
+    this.reference = reference;
+  }
+
+  /**
+   * Appends the given clock to the end of this history
+   *
+   * @param clock
+   *          the next clock of this history's node
+   * @return this history
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   * @throws IllegalArgumentException
+   *           if the given clock belongs to a different node, does not observe all nodes observed by the previous clock
+   *           or has a version older than the one observed by the previous clock
+   */
+  public VectorClockHistory append(final VectorClock clock) throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(clock);
+    Preconditions.checkArgument(reference.equals(clock.node()));
+
+    /* Validate the whole clock before modifying any column */
+    final Map<StringNode, LongVersion> versions = clock.versions();
+    columns.forEach((n, c) -> {
+      final LongVersion version = versions.get(n);
+      Preconditions.checkArgument(version != null && version.getVersion() >= c.last());
+    });
+
+    versions.forEach((n, v) -> columns.computeIfAbsent(n, k -> new Column(size)).append(v.getVersion()));
+    size++;
+    return this;
+  }
+
+  /**
+   * Returns {@code true} if the clock at the given index has observed all versions of the given clock, as defined by
+   * {@link VectorClock#dominates(VectorClock)}
+   *
+   * @param index
+   *          the index of the clock within this history
+   * @param other
+   *          the clock to compare with
+   * @return {@code true} if the clock at the given index has observed all versions of the given clock
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   * @throws IllegalArgumentException
+   *           if the index is out of range
+   */
+  public boolean dominates(final int index, final VectorClock other)
+      throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(other);
+    Preconditions.checkArgument(index >= 0 && index < size);
+
+    /*
+     * Same as get(index).dominates(other), but reads the versions straight from the columns instead of rebuilding the
+     * clock, which would allocate a map and a version for every node observed at the given index
+     */
+    for (final Map.Entry<StringNode, LongVersion> entry : other.versions().entrySet()) {
+      final Column column = columns.get(entry.getKey());
+      if (column == null || false == column.isObservedAt(index)
+          || column.versionAt(index) < entry.getValue().getVersion()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the index of the first clock which has observed all versions of the given clock. Empty is returned if no
+   * clock in this history has observed the given clock.
+   *
+   * @param other
+   *          the clock to look for
+   * @return the index of the first clock which has observed all versions of the given clock
+   * @throws NullPointerException
+   *           if the given clock is {@code null}
+   */
+  public OptionalInt firstDominating(final VectorClock other) throws NullPointerException {
+    Preconditions.checkNotNull(other);
+
+    int first = 0;
+    for (final Map.Entry<StringNode, LongVersion> entry : other.versions().entrySet()) {
+      final int index = firstSeen(entry.getKey(), entry.getValue().getVersion());
+      if (index == -1) {
+        return OptionalInt.empty();
+      }
+      first = Math.max(first, index);
+    }
+
+    return size == 0 ? OptionalInt.empty() : OptionalInt.of(first);
+  }
+
+  /**
+   * Returns the index of the first clock which has observed the given version (or a later one) of the given node
+   *
+   * @param node
+   *          the node to look for
+   * @param version
+   *          the version to look for
+   * @return the index of the first clock which has observed the given version of the given node
+   * @throws NullPointerException
+   *           if any of the parameters is {@code null}
+   */
+  public OptionalInt firstSeen(final StringNode node, final LongVersion version) throws NullPointerException {
+    Preconditions.checkNotNull(node);
+    Preconditions.checkNotNull(version);
+
+    final int index = firstSeen(node, version.getVersion());
+    return index == -1 ? OptionalInt.empty() : OptionalInt.of(index);
+  }
+
+  private int firstSeen(final StringNode node, final long version) {
+    final Column column = columns.get(node);
+    return column == null ? -1 : column.firstAtLeast(version);
+  }
+
+  /**
+   * Rebuilds the clock at the given index
+   *
+   * @param index
+   *          the index of the clock within this history
+   * @return the clock at the given index
+   * @throws IllegalArgumentException
+   *           if the index is out of range
+   */
+  public VectorClock get(final int index) throws IllegalArgumentException {
+    Preconditions.checkArgument(index >= 0 && index < size);
+
+    final Map<StringNode, LongVersion> versions = new HashMap<>();
+    columns.forEach((n, c) -> {
+      if (c.isObservedAt(index)) {
+        final long version = c.versionAt(index);
+        versions.put(n, version == 0 ? LongVersion.first() : LongVersion.of(version));
+      }
+    });
+
+    return new VectorClock(reference, versions);
+  }
+
+  public StringNode node() {
+    return reference;
+  }
+
+  public int size() {
+    return size;
+  }
+}
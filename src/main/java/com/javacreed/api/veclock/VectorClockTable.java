@@ -0,0 +1,292 @@
+package com.javacreed.api.veclock;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A thread-safe table that maps keys (such as the keys of a key/value store) to their {@link VectorClock}. The table is
+ * bound to the node of the local replica, which owns the clocks created by the table. Local events move the local
+ * node's version through {@link #next(Object)}, while clocks received from other replicas are merged without moving
+ * any version through {@link #merge(Object, VectorClock)}. Therefore, two replicas that exchanged their clocks end up
+ * with the same versions and stop exchanging them.
+ * <p>
+ * Clocks are immutable, thus every update computes the new clock without holding any lock and then swaps it in only if
+ * the key still maps to the clock the update was computed from, retrying otherwise. Locks (which are striped by the
+ * underlying {@link ConcurrentHashMap}) are only held for the duration of the swap and never while clocks are being
+ * copied or merged. This keeps contention low even when many threads update the same key.
+ * <p>
+ * The table provides the following updates, all of which are atomic:
+ * <ol>
+ * <li>{@link #next(Object)} moves the local node's version of the clock mapped to the key to the next</li>
+ * <li>{@link #merge(Object, VectorClock)} takes the latest version of every node from the given clock and the one
+ * mapped to the key</li>
+ * <li>{@link #putIfDominates(Object, VectorClock)} replaces the clock mapped to the key only if the given clock has
+ * observed all its versions</li>
+ * <li>{@link #compareAndSet(Object, VectorClock, VectorClock)} replaces the clock mapped to the key only if it is the
+ * expected one</li>
+ * </ol>
+ *
+ * The {@link #forEach(BiConsumer)} method iterates all keys, for example to run anti-entropy against another replica,
+ * without blocking the updates.
+ * <p>
+ * A table created through {@link #createWithDigest(StringNode, int)} also maintains a {@link VectorClockDigest} of its
+ * clocks, which is updated after every successful update. Once the updates complete the digest reflects the clocks of
+ * all keys, thus replicas can compare their digests rather than their clocks.
+ *
+ * @author Albert Attard
+ *
+ * @param <K>
+ *          the key type
+ */
+@ThreadSafe
+public class VectorClockTable<K> {
+
+  public static <Kk> VectorClockTable<Kk> create(final StringNode node) throws NullPointerException {
+    Preconditions.checkNotNull(node);
+    return new VectorClockTable<>(node, new ConcurrentHashMap<>(), null);
+  }
+
+  public static <Kk> VectorClockTable<Kk> create(final StringNode node, final int initialCapacity)
+      throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(node);
+    Preconditions.checkArgument(initialCapacity >= 0);
+    return new VectorClockTable<>(node, new ConcurrentHashMap<>(initialCapacity), null);
+  }
+
+  /**
+   * Creates an empty table that maintains a digest of its clocks
+   *
+   * @param node
+   *          the node of the local replica
+   * @param depth
+   *          the depth of the digest (see {@link VectorClockDigest#of(int)})
+   * @return an empty table with an empty digest
+   * @throws NullPointerException
+   *           if the node is {@code null}
+   * @throws IllegalArgumentException
+   *           if the depth is out of range
+   */
+  public static <Kk> VectorClockTable<Kk> createWithDigest(final StringNode node, final int depth)
+      throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(node);
+    return new VectorClockTable<>(node, new ConcurrentHashMap<>(), VectorClockDigest.of(depth));
+  }
+
+  private final StringNode node;
+  private final ConcurrentMap<K, VectorClock> clocks;
+
+  /* May be null */
+  private final VectorClockDigest<K> digest;
+
+  private VectorClockTable(final StringNode node, final ConcurrentMap<K, VectorClock> clocks,
+      final VectorClockDigest<K> digest) {
+    this.node = node;
+    this.clocks = clocks;
+    this.digest = digest;
+  }
+
+  /**
+   * Replaces the clock mapped to the given key with the update, only if the key is mapped to the expected clock
+   *
+   * @param key
+   *          the key
+   * @param expected
+   *          the clock expected to be mapped to the key, or {@code null} if the key is expected to be absent
+   * @param update
+   *          the new clock
+   * @return {@code true} if the clock was replaced
+   * @throws NullPointerException
+   *           if the key or the update are {@code null}
+   */
+  public boolean compareAndSet(final K key, final VectorClock expected, final VectorClock update)
+      throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(update);
+
+    final boolean updated = expected == null ? clocks.putIfAbsent(key, update) == null
+        : clocks.replace(key, expected, update);
+    if (updated) {
+      updateDigest(key);
+    }
+    return updated;
+  }
+
+  /**
+   * Returns the digest of this table's clocks, if this table was created with one
+   *
+   * @return the digest of this table's clocks
+   */
+  public Optional<VectorClockDigest<K>> digest() {
+    return Optional.ofNullable(digest);
+  }
+
+  /**
+   * Iterates all keys and their clocks. The iteration does not block updates and reflects the state of the table at
+   * some point at or since the iteration started.
+   *
+   * @param action
+   *          the action invoked for every key
+   * @throws NullPointerException
+   *           if the action is {@code null}
+   */
+  public void forEach(final BiConsumer<? super K, ? super VectorClock> action) throws NullPointerException {
+    Preconditions.checkNotNull(action);
+    clocks.forEach(action);
+  }
+
+  public Optional<VectorClock> get(final K key) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    return Optional.ofNullable(clocks.get(key));
+  }
+
+  /**
+   * Merges the given clock into the clock mapped to the given key, keeping the latest version of every node (see
+   * {@link VectorClock#max(VectorClock)}). No version is moved to the next, not even the local node's version. When
+   * the key is absent, the given clock is merged into the first clock of this table's node. Nothing is changed when
+   * the existing clock has already observed all versions of the given clock.
+   *
+   * @param key
+   *          the key
+   * @param incoming
+   *          the clock to merge, which may belong to any node
+   * @return the clock mapped to the key after the merge
+   * @throws NullPointerException
+   *           if any of the parameters is {@code null}
+   */
+  public VectorClock merge(final K key, final VectorClock incoming) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(incoming);
+
+    while (true) {
+      final VectorClock current = clocks.get(key);
+      if (current == null) {
+        final VectorClock first = VectorClock.first(node).max(incoming);
+        if (clocks.putIfAbsent(key, first) == null) {
+          updateDigest(key);
+          return first;
+        }
+      } else if (current.dominates(incoming)) {
+        return current;
+      } else {
+        final VectorClock merged = current.max(incoming);
+        if (clocks.replace(key, current, merged)) {
+          updateDigest(key);
+          return merged;
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a local event (such as a write) on the given key, by moving the local node's version of the clock mapped
+   * to the key to the next. The first clock of this table's node is mapped to the key when the key is absent.
+   *
+   * @param key
+   *          the key
+   * @return the clock mapped to the key after the event
+   * @throws NullPointerException
+   *           if the key is {@code null}
+   */
+  public VectorClock next(final K key) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+
+    while (true) {
+      final VectorClock current = clocks.get(key);
+      if (current == null) {
+        final VectorClock first = VectorClock.first(node);
+        if (clocks.putIfAbsent(key, first) == null) {
+          updateDigest(key);
+          return first;
+        }
+      } else {
+        /* Clocks set through compareAndSet() or putIfDominates() may belong to another node */
+        final VectorClock owned = current.node().equals(node) ? current : VectorClock.first(node).max(current);
+        final VectorClock next = owned.next();
+        if (clocks.replace(key, current, next)) {
+          updateDigest(key);
+          return next;
+        }
+      }
+    }
+  }
+
+  /**
+   * Maps the given clock to the given key, only if the key is absent or the given clock has observed all versions of
+   * the clock mapped to the key
+   *
+   * @param key
+   *          the key
+   * @param incoming
+   *          the new clock
+   * @return {@code true} if the given clock is now mapped to the key
+   * @throws NullPointerException
+   *           if any of the parameters is {@code null}
+   */
+  public boolean putIfDominates(final K key, final VectorClock incoming) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(incoming);
+
+    while (true) {
+      final VectorClock current = clocks.get(key);
+      if (current == null) {
+        if (clocks.putIfAbsent(key, incoming) == null) {
+          updateDigest(key);
+          return true;
+        }
+      } else if (false == incoming.dominates(current)) {
+        return false;
+      } else if (current.equals(incoming)) {
+        return true;
+      } else if (clocks.replace(key, current, incoming)) {
+        updateDigest(key);
+        return true;
+      }
+    }
+  }
+
+  public StringNode node() {
+    return node;
+  }
+
+  public Optional<VectorClock> remove(final K key) throws NullPointerException {
+    Preconditions.checkNotNull(key);
+
+    final VectorClock removed = clocks.remove(key);
+    if (removed != null) {
+      updateDigest(key);
+    }
+    return Optional.ofNullable(removed);
+  }
+
+  public int size() {
+    return clocks.size();
+  }
+
+  /*
+   * Copies the clock currently mapped to the given key into the digest. Another thread may update the key in the
+   * meantime and copy its clock first, in which case the clock is copied again so that the newer one is not overwritten
+   * with an older one.
+   */
+  private void updateDigest(final K key) {
+    if (digest == null) {
+      return;
+    }
+
+    while (true) {
+      final VectorClock clock = clocks.get(key);
+      if (clock == null) {
+        digest.remove(key);
+      } else {
+        digest.put(key, clock);
+      }
+
+      if (clocks.get(key) == clock) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.javacreed.api.veclock;
+
+import java.util.HashMap;
+
+/**
+ * Adapts a clock implementation to the {@link Simulation}, so that the same traffic can be replayed against both
+ * {@link VectorClock} and {@link GenericVectorClock}
+ *
+ * @author Albert Attard
+ *
+ * @param <C>
+ *          the clock type
+ */
+public interface ClockModel<C> {
+
+  ClockModel<VectorClock> VECTOR_CLOCK = new ClockModel<VectorClock>() {
+    @Override
+    public VectorClock first(final int node) {
+      return VectorClock.first("n" + node);
+    }
+
+    @Override
+    public VectorClock merge(final VectorClock receiver, final VectorClock message) {
+      return receiver.add(message);
+    }
+
+    @Override
+    public VectorClock next(final VectorClock clock) {
+      return clock.next();
+    }
+
+    @Override
+    public int size(final VectorClock clock) {
+      return clock.size();
+    }
+
+    @Override
+    public String toString() {
+      return "VectorClock";
+    }
+  };
+
+  ClockModel<GenericVectorClock<StringNode, LongVersion>> GENERIC_VECTOR_CLOCK =
+      new ClockModel<GenericVectorClock<StringNode, LongVersion>>() {
+        @Override
+        public GenericVectorClock<StringNode, LongVersion> first(final int node) {
+          return GenericVectorClock.of(StringNode.of("n" + node), LongVersion.first(), () -> new HashMap<>());
+        }
+
+        @Override
+        public GenericVectorClock<StringNode, LongVersion> merge(
+            final GenericVectorClock<StringNode, LongVersion> receiver,
+            final GenericVectorClock<StringNode, LongVersion> message) {
+          return receiver.add(message);
+        }
+
+        @Override
+        public GenericVectorClock<StringNode, LongVersion> next(
+            final GenericVectorClock<StringNode, LongVersion> clock) {
+          return clock.next();
+        }
+
+        @Override
+        public int size(final GenericVectorClock<StringNode, LongVersion> clock) {
+          return clock.size();
+        }
+
+        @Override
+        public String toString() {
+          return "GenericVectorClock";
+        }
+      };
+
+  C first(int node);
+
+  C merge(C receiver, C message);
+
+  C next(C clock);
+
+  int size(C clock);
+}
@@ -9,6 +9,64 @@ import org.junit.Test;
 
 public class GenericVectorClockTest {
 
+  /* A node which is not comparable and whose string representation is not unique */
+  private static class LabelNode implements Node {
+    private final String label;
+
+    private LabelNode(final String label) {
+      this.label = label;
+    }
+
+    @Override
+    public String toString() {
+      return label;
+    }
+  }
+
+  @Test
+  public void hashMapAndTreeMap() {
+    final Supplier<Map<StringNode, LongVersion>> treeMapFactory = () -> new TreeMap<>();
+
+    GenericVectorClock<StringNode, LongVersion> hash = GenericVectorClock.of(StringNode.of("b"), LongVersion.first());
+    GenericVectorClock<StringNode, LongVersion> tree = GenericVectorClock.of(StringNode.of("b"), LongVersion.first(),
+        treeMapFactory);
+
+    for (final String name : new String[] { "z", "c", "a", "y", "d" }) {
+      hash = hash.add(StringNode.of(name), LongVersion.of(name.charAt(0)));
+      tree = tree.add(StringNode.of(name), LongVersion.of(name.charAt(0)));
+    }
+
+    Assert.assertEquals("[a:97,b:5,c:99,d:100,y:121,z:122]", hash.toString());
+    Assert.assertEquals(tree.toString(), hash.toString());
+    Assert.assertEquals(tree.sortedVersions(), hash.sortedVersions());
+    Assert.assertEquals(tree, hash);
+    Assert.assertEquals(tree.hashCode(), hash.hashCode());
+  }
+
+  @Test
+  public void labelNodes() {
+    GenericVectorClock<LabelNode, LongVersion> clock = GenericVectorClock.of(new LabelNode("b"), LongVersion.first());
+    clock = clock.add(new LabelNode("a"), LongVersion.first());
+    Assert.assertEquals("[a:0,b:1]", clock.toString());
+  }
+
+  @Test
+  public void labelNodesThatCannotBeOrdered() {
+    GenericVectorClock<LabelNode, LongVersion> clock = GenericVectorClock.of(new LabelNode("n"), LongVersion.first());
+    clock = clock.add(new LabelNode("n"), LongVersion.first());
+
+    /* Formatting never fails, even though the order is not canonical */
+    final String formatted = clock.toString();
+    Assert.assertTrue(formatted, "[n:0,n:1]".equals(formatted) || "[n:1,n:0]".equals(formatted));
+
+    try {
+      clock.sortedVersions();
+      Assert.fail("Nodes that cannot be ordered should not be sorted");
+    } catch (final IllegalStateException e) {
+      /* Expected */
+    }
+  }
+
   @Test
   public void multipleClocks() {
     /* Based on the image shown in Wiki: https://en.wikipedia.org/wiki/Vector_clock#/media/File:Vector_Clock.svg */
@@ -0,0 +1,150 @@
+package com.javacreed.api.veclock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * An in-process simulation of a cluster where every node holds a clock and exchanges messages with other nodes, as
+ * dictated by the {@link SimulationTopology}. In every message, the sender moves its clock to the next version and the
+ * receiver adds the sender's clock to its own.
+ * <p>
+ * All randomness is taken from a seeded {@link Random}, therefore two simulations with the same parameters produce the
+ * same clocks. This makes the simulation suitable to reproduce a traffic shape against different versions of this
+ * library and compare the measurements reported by each {@link SimulationRound}.
+ * <p>
+ * The simulation can also be run from the command line:
+ *
+ * <pre>
+ * java com.javacreed.api.veclock.Simulation [model] [topology] [nodes] [rounds] [messages] [seed]
+ * </pre>
+ *
+ * where the model is either {@code VectorClock} or {@code GenericVectorClock}.
+ *
+ * @author Albert Attard
+ *
+ * @param <C>
+ *          the clock type
+ */
+@NotThreadSafe
+public class Simulation<C> {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static long allocatedBytes() {
+    if (Simulation.THREADS instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) Simulation.THREADS;
+      if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+
+    return -1;
+  }
+
+  public static void main(final String[] args) {
+    final ClockModel<?> model = args.length > 0 && "GenericVectorClock".equals(args[0])
+        ? ClockModel.GENERIC_VECTOR_CLOCK
+        : ClockModel.VECTOR_CLOCK;
+    final SimulationTopology topology = args.length > 1
+        ? SimulationTopology.valueOf(args[1])
+        : SimulationTopology.GOSSIP;
+    final int nodes = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+    final int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+    final int messages = args.length > 4 ? Integer.parseInt(args[4]) : nodes;
+    final long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+    System.out.printf("model=%s, topology=%s, nodes=%d, seed=%d%n", model, topology, nodes, seed);
+    Simulation.of(model, topology, nodes, seed).run(rounds, messages).forEach(System.out::println);
+  }
+
+  public static <Cc> Simulation<Cc> of(final ClockModel<Cc> model, final SimulationTopology topology, final int nodes,
+      final long seed) throws NullPointerException, IllegalArgumentException {
+    Preconditions.checkNotNull(model);
+    Preconditions.checkNotNull(topology);
+    Preconditions.checkArgument(nodes > 1);
+    return new Simulation<>(model, topology, nodes, seed);
+  }
+
+  private final ClockModel<C> model;
+  private final SimulationTopology topology;
+  private final List<C> clocks;
+  private final Random random;
+  private int rounds;
+
+  private Simulation(final ClockModel<C> model, final SimulationTopology topology, final int nodes, final long seed) {
+    this.model = model;
+    this.topology = topology;
+    this.random = new Random(seed);
+
+    this.clocks = new ArrayList<>(nodes);
+    for (int i = 0; i < nodes; i++) {
+      clocks.add(model.first(i));
+    }
+  }
+
+  public C clock(final int node) {
+    return clocks.get(node);
+  }
+
+  public int nodes() {
+    return clocks.size();
+  }
+
+  /**
+   * Runs one round where the given number of messages are exchanged, each from a node picked at random
+   *
+   * @param messages
+   *          the number of messages to exchange
+   * @return the measurements taken during this round
+   * @throws IllegalArgumentException
+   *           if the number of messages is negative
+   */
+  public SimulationRound round(final int messages) throws IllegalArgumentException {
+    Preconditions.checkArgument(messages >= 0);
+
+    final int nodes = clocks.size();
+    long mergeNanos = 0;
+
+    final long allocatedBefore = Simulation.allocatedBytes();
+    final long start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      final int sender = random.nextInt(nodes);
+      final int receiver = topology.peer(sender, nodes, random);
+
+      final C message = model.next(clocks.get(sender));
+      clocks.set(sender, message);
+
+      final long mergeStart = System.nanoTime();
+      clocks.set(receiver, model.merge(clocks.get(receiver), message));
+      mergeNanos += System.nanoTime() - mergeStart;
+    }
+    final long elapsedNanos = System.nanoTime() - start;
+    final long allocatedAfter = Simulation.allocatedBytes();
+
+    long totalSize = 0;
+    int maxSize = 0;
+    for (final C clock : clocks) {
+      final int size = model.size(clock);
+      totalSize += size;
+      maxSize = Math.max(maxSize, size);
+    }
+
+    return new SimulationRound(++rounds, messages, (double) totalSize / nodes, maxSize, elapsedNanos, mergeNanos,
+        allocatedBefore == -1 || allocatedAfter == -1 ? -1 : allocatedAfter - allocatedBefore);
+  }
+
+  public List<SimulationRound> run(final int rounds, final int messages) throws IllegalArgumentException {
+    Preconditions.checkArgument(rounds >= 0);
+
+    final List<SimulationRound> report = new ArrayList<>(rounds);
+    for (int i = 0; i < rounds; i++) {
+      report.add(round(messages));
+    }
+    return report;
+  }
+}
@@ -0,0 +1,99 @@
+package com.javacreed.api.veclock;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * The measurements taken during one round of a {@link Simulation}. The clock sizes are deterministic for a given seed
+ * while the timings and allocations depend on the machine running the simulation.
+ *
+ * @author Albert Attard
+ */
+@Immutable
+public class SimulationRound {
+
+  private final int round;
+  private final int messages;
+  private final double averageSize;
+  private final int maxSize;
+  private final long elapsedNanos;
+  private final long mergeNanos;
+  private final long allocatedBytes;
+
+  SimulationRound(final int round, final int messages, final double averageSize, final int maxSize,
+      final long elapsedNanos, final long mergeNanos, final long allocatedBytes) {
+    this.round = round;
+    this.messages = messages;
+    this.averageSize = averageSize;
+    this.maxSize = maxSize;
+    this.elapsedNanos = elapsedNanos;
+    this.mergeNanos = mergeNanos;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the simulation thread during this round, or {@code -1} if the JVM does not
+   * support measuring allocations
+   *
+   * @return the number of bytes allocated during this round
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Returns the number of bytes allocated per second by the simulation thread during this round, or {@code -1} if the
+   * JVM does not support measuring allocations
+   *
+   * @return the number of bytes allocated per second
+   */
+  public double getAllocatedBytesPerSecond() {
+    if (allocatedBytes == -1) {
+      return -1;
+    }
+
+    return elapsedNanos == 0 ? 0 : allocatedBytes * 1_000_000_000d / elapsedNanos;
+  }
+
+  public double getAverageMergeNanos() {
+    return messages == 0 ? 0 : (double) mergeNanos / messages;
+  }
+
+  public double getAverageSize() {
+    return averageSize;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getMessages() {
+    return messages;
+  }
+
+  /**
+   * Returns the number of clock operations performed per second during this round. Each message counts as two
+   * operations: the sender's {@code next()} and the receiver's {@code add()}.
+   *
+   * @return the number of clock operations performed per second
+   */
+  public double getOperationsPerSecond() {
+    return elapsedNanos == 0 ? 0 : messages * 2 * 1_000_000_000d / elapsedNanos;
+  }
+
+  public int getRound() {
+    return round;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "round=%d, messages=%d, size(avg)=%.1f, size(max)=%d, ops/s=%.0f, merge(ns)=%.0f, allocated=%d, "
+            + "allocated/s=%.0f",
+        round, messages, averageSize, maxSize, getOperationsPerSecond(), getAverageMergeNanos(), allocatedBytes,
+        getAllocatedBytesPerSecond());
+  }
+}
@@ -0,0 +1,131 @@
+package com.javacreed.api.veclock;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimulationTest {
+
+  private static final int NODES = 20;
+  private static final long SEED = 7;
+
+  private static <C> void assertDeterministic(final ClockModel<C> model, final SimulationTopology topology) {
+    final Simulation<C> first = Simulation.of(model, topology, 1000, SimulationTest.SEED);
+    final Simulation<C> second = Simulation.of(model, topology, 1000, SimulationTest.SEED);
+
+    final List<SimulationRound> firstReport = first.run(5, 1000);
+    final List<SimulationRound> secondReport = second.run(5, 1000);
+
+    double previousSize = 0;
+    for (int i = 0; i < firstReport.size(); i++) {
+      final SimulationRound round = firstReport.get(i);
+      Assert.assertEquals(i + 1, round.getRound());
+      Assert.assertEquals(1000, round.getMessages());
+      Assert.assertEquals(secondReport.get(i).getMaxSize(), round.getMaxSize());
+      Assert.assertEquals(secondReport.get(i).getAverageSize(), round.getAverageSize(), 0);
+      Assert.assertTrue(round.getAverageSize() >= previousSize);
+      Assert.assertTrue(round.getMaxSize() <= 1000);
+      previousSize = round.getAverageSize();
+    }
+
+    for (int i = 0; i < first.nodes(); i++) {
+      Assert.assertEquals(first.clock(i), second.clock(i));
+    }
+  }
+
+  /**
+   * Runs the simulation until all clocks observe all nodes and verifies the rounds at which the first clock and then
+   * all clocks reached the full size. These rounds are fixed by the seed, thus any change in how clocks grow when added
+   * fails this check. Both clock implementations must grow in the same way.
+   */
+  private static void assertGrowth(final SimulationTopology topology, final int firstFullRound,
+      final int allFullRound) {
+    final Simulation<VectorClock> simulation = Simulation.of(ClockModel.VECTOR_CLOCK, topology,
+        SimulationTest.NODES, SimulationTest.SEED);
+    final Simulation<GenericVectorClock<StringNode, LongVersion>> generic = Simulation
+        .of(ClockModel.GENERIC_VECTOR_CLOCK, topology, SimulationTest.NODES, SimulationTest.SEED);
+
+    for (int i = 1; i <= allFullRound; i++) {
+      final SimulationRound round = simulation.round(SimulationTest.NODES);
+      final SimulationRound genericRound = generic.round(SimulationTest.NODES);
+      Assert.assertEquals(round.getAverageSize(), genericRound.getAverageSize(), 0);
+      Assert.assertEquals(round.getMaxSize(), genericRound.getMaxSize());
+
+      Assert.assertEquals(topology + " round " + i, i >= firstFullRound, round.getMaxSize() == SimulationTest.NODES);
+      Assert.assertEquals(topology + " round " + i, i >= allFullRound,
+          round.getAverageSize() == SimulationTest.NODES);
+      SimulationTest.assertObserved(topology, simulation);
+    }
+  }
+
+  /**
+   * Verifies that every clock only observed the nodes it could have heard of, given the topology
+   */
+  private static void assertObserved(final SimulationTopology topology, final Simulation<VectorClock> simulation) {
+    final int nodes = simulation.nodes();
+    final int hubSize = simulation.clock(0).size();
+
+    for (int i = 0; i < nodes; i++) {
+      final VectorClock clock = simulation.clock(i);
+      Assert.assertTrue(clock.size() <= nodes);
+
+      switch (topology) {
+      case RING:
+        /* A node only hears from the node before it, thus it observes a contiguous range of nodes ending with itself */
+        for (int j = 0; j < clock.size(); j++) {
+          final StringNode node = StringNode.of("n" + (i - j + nodes) % nodes);
+          Assert.assertTrue(topology + " " + clock, clock.version(node).isPresent());
+        }
+        break;
+      case STAR:
+        /* A leaf only hears from the hub, thus it observes at most the hub's nodes and itself */
+        Assert.assertTrue(topology + " " + clock, clock.size() <= hubSize + 1);
+        break;
+      default:
+        break;
+      }
+    }
+  }
+
+  @Test
+  public void allocationRate() {
+    final SimulationRound round = Simulation.of(ClockModel.VECTOR_CLOCK, SimulationTopology.GOSSIP, 100, 0)
+        .round(1000);
+    if (round.getAllocatedBytes() == -1) {
+      Assert.assertEquals(-1, round.getAllocatedBytesPerSecond(), 0);
+    } else {
+      Assert.assertTrue(round.getAllocatedBytes() > 0);
+      Assert.assertTrue(round.getAllocatedBytesPerSecond() > 0);
+    }
+  }
+
+  @Test
+  public void genericVectorClock() {
+    for (final SimulationTopology topology : SimulationTopology.values()) {
+      SimulationTest.assertDeterministic(ClockModel.GENERIC_VECTOR_CLOCK, topology);
+    }
+  }
+
+  @Test
+  public void gossipGrowth() {
+    SimulationTest.assertGrowth(SimulationTopology.GOSSIP, 5, 8);
+  }
+
+  @Test
+  public void ringGrowth() {
+    SimulationTest.assertGrowth(SimulationTopology.RING, 16, 24);
+  }
+
+  @Test
+  public void starGrowth() {
+    SimulationTest.assertGrowth(SimulationTopology.STAR, 3, 105);
+  }
+
+  @Test
+  public void vectorClock() {
+    for (final SimulationTopology topology : SimulationTopology.values()) {
+      SimulationTest.assertDeterministic(ClockModel.VECTOR_CLOCK, topology);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.javacreed.api.veclock;
+
+import java.util.Random;
+
+/**
+ * Decides which node receives the message sent by a node during a {@link Simulation}
+ *
+ * @author Albert Attard
+ */
+public enum SimulationTopology {
+
+  /** Every node sends to any other node, picked at random */
+  GOSSIP {
+    @Override
+    public int peer(final int sender, final int nodes, final Random random) {
+      final int peer = random.nextInt(nodes - 1);
+      return peer < sender ? peer : peer + 1;
+    }
+  },
+
+  /** The first node is the hub, which sends to any node picked at random, while all other nodes send to the hub */
+  STAR {
+    @Override
+    public int peer(final int sender, final int nodes, final Random random) {
+      return sender == 0 ? 1 + random.nextInt(nodes - 1) : 0;
+    }
+  },
+
+  /** Every node sends to the node next to it */
+  RING {
+    @Override
+    public int peer(final int sender, final int nodes, final Random random) {
+      return (sender + 1) % nodes;
+    }
+  };
+
+  /**
+   * Returns the node that receives the message sent by the given node. The returned node is never the sender.
+   *
+   * @param sender
+   *          the index of the sending node
+   * @param nodes
+   *          the number of nodes (at least two)
+   * @param random
+   *          the source of randomness, which is seeded by the simulation
+   * @return the index of the receiving node
+   */
+  public abstract int peer(int sender, int nodes, Random random);
+}
@@ -0,0 +1,176 @@
+package com.javacreed.api.veclock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VectorClockDigestTest {
+
+  private static VectorClockDigest<String> rebuild(final VectorClockTable<String> table) {
+    final VectorClockDigest<String> digest = VectorClockDigest.of(table.digest().get().depth());
+    table.forEach(digest::put);
+    return digest;
+  }
+
+  @Test
+  public void concurrentUpdates() throws Exception {
+    final VectorClockTable<String> table = VectorClockTable.createWithDigest(StringNode.of("server"), 3);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final VectorClock first = VectorClock.first("n" + i);
+        futures.add(executor.submit(() -> {
+          VectorClock clock = first;
+          for (int j = 0; j < 1000; j++) {
+            final String key = "key" + j % 20;
+            clock = clock.next();
+            table.merge(key, clock);
+            if (j % 7 == 0) {
+              table.next(key);
+            }
+            if (j % 11 == 0) {
+              table.remove(key);
+            }
+          }
+        }));
+      }
+
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    /* Once the updates complete, the digest is the same as one rebuilt from the table */
+    final VectorClockDigest<String> digest = table.digest().get();
+    Assert.assertEquals(table.size(), digest.size());
+    Assert.assertEquals(VectorClockDigestTest.rebuild(table).rootHash(), digest.rootHash());
+    Assert.assertEquals(Collections.emptyList(), VectorClockDigestTest.rebuild(table).differences(digest));
+  }
+
+  @Test
+  public void hash() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClock b = VectorClock.first("b");
+
+    Assert.assertEquals(VectorClockDigest.hash(a.add(b)), VectorClockDigest.hash(VectorClock.first("a").add(b)));
+    Assert.assertNotEquals(VectorClockDigest.hash(a), VectorClockDigest.hash(b));
+    Assert.assertNotEquals(VectorClockDigest.hash(a), VectorClockDigest.hash(a.next()));
+
+    /* The owner is not part of the hash */
+    Assert.assertEquals(VectorClockDigest.hash(a.max(b)), VectorClockDigest.hash(b.max(a)));
+  }
+
+  @Test
+  public void hashIgnoresDefaultLocale() {
+    final Locale locale = Locale.getDefault();
+    try {
+      Locale.setDefault(Locale.ROOT);
+      final long root = VectorClockDigest.hash(VectorClock.first("NODEI").add(VectorClock.first("Ilk")));
+
+      /* The Turkish locale lower cases I into a dotless i */
+      Locale.setDefault(new Locale("tr", "TR"));
+      final long turkish = VectorClockDigest.hash(VectorClock.first("NODEI").add(VectorClock.first("Ilk")));
+
+      Assert.assertEquals(root, turkish);
+    } finally {
+      Locale.setDefault(locale);
+    }
+  }
+
+  @Test
+  public void depth() {
+    final VectorClockDigest<String> digest = VectorClockDigest.of(16);
+    Assert.assertEquals(65536, digest.buckets());
+
+    digest.put("key", VectorClock.first("a"));
+    Assert.assertEquals(Collections.singleton("key"), digest.keys(digest.bucket("key")));
+    digest.remove("key");
+    Assert.assertEquals(Collections.emptySet(), digest.keys(digest.bucket("key")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void depthOutOfRange() {
+    VectorClockDigest.of(17);
+  }
+
+  @Test
+  public void incremental() {
+    final VectorClockTable<String> table = VectorClockTable.createWithDigest(StringNode.of("local"), 4);
+    for (int i = 0; i < 100; i++) {
+      table.merge("key" + i, VectorClock.first("n" + i % 7));
+    }
+
+    final VectorClockDigest<String> digest = table.digest().get();
+    Assert.assertEquals(100, digest.size());
+
+    final long root = digest.rootHash();
+    final VectorClock original = table.get("key3").get();
+    table.compareAndSet("key3", original, VectorClock.first("x"));
+    Assert.assertNotEquals(root, digest.rootHash());
+
+    /* The incremental updates produce the same hashes as a full rebuild */
+    Assert.assertEquals(VectorClockDigestTest.rebuild(table).rootHash(), digest.rootHash());
+
+    table.remove("key3");
+    Assert.assertEquals(99, digest.size());
+    Assert.assertFalse(digest.keys(digest.bucket("key3")).contains("key3"));
+    table.compareAndSet("key3", null, original);
+    Assert.assertEquals(root, digest.rootHash());
+  }
+
+  @Test
+  public void reconcileReplicas() {
+    final VectorClockTable<String> a = VectorClockTable.createWithDigest(StringNode.of("A"), 4);
+    final VectorClockTable<String> b = VectorClockTable.createWithDigest(StringNode.of("B"), 4);
+    for (int i = 0; i < 100; i++) {
+      a.next("key" + i);
+    }
+    b.next("key7");
+
+    /* Exchange the clocks both ways, after which the replicas have the same versions but own different clocks */
+    a.forEach(b::merge);
+    b.forEach(a::merge);
+
+    Assert.assertEquals(Collections.emptyList(), a.digest().get().differences(b.digest().get()));
+
+    a.next("key7");
+    Assert.assertEquals(Arrays.asList(a.digest().get().bucket("key7")), a.digest().get().differences(b.digest().get()));
+  }
+
+  @Test
+  public void reconcile() {
+    final VectorClockDigest<String> first = VectorClockDigest.of(6);
+    final VectorClockDigest<String> second = VectorClockDigest.of(6);
+    Assert.assertEquals(64, first.buckets());
+
+    for (int i = 0; i < 1000; i++) {
+      final VectorClock clock = VectorClock.first("n" + i % 5).next();
+      first.put("key" + i, clock);
+      second.put("key" + i, clock);
+    }
+
+    Assert.assertEquals(first.rootHash(), second.rootHash());
+    Assert.assertEquals(Collections.emptyList(), first.differences(second));
+
+    second.put("key42", VectorClock.first("n2").next().next());
+    Assert.assertNotEquals(first.rootHash(), second.rootHash());
+
+    final int bucket = first.bucket("key42");
+    Assert.assertEquals(Arrays.asList(bucket), first.differences(second));
+    Assert.assertTrue(first.keys(bucket).contains("key42"));
+    Assert.assertNotEquals(first.hash(6, bucket), second.hash(6, bucket));
+    Assert.assertEquals(first.hash(1, bucket < 32 ? 1 : 0), second.hash(1, bucket < 32 ? 1 : 0));
+  }
+}
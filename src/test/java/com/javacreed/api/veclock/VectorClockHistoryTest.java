@@ -0,0 +1,78 @@
+package com.javacreed.api.veclock;
+
+import java.util.OptionalInt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VectorClockHistoryTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void appendClockOfDifferentNode() {
+    VectorClockHistory.of(StringNode.of("a")).append(VectorClock.first("b"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void appendOlderClock() {
+    final VectorClock a = VectorClock.first("a");
+    VectorClockHistory.of(a.node()).append(a.next()).append(a);
+  }
+
+  @Test
+  public void history() {
+    /* Based on the image shown in Wiki: https://en.wikipedia.org/wiki/Vector_clock#/media/File:Vector_Clock.svg */
+    VectorClock a = VectorClock.first("a");
+    VectorClock b = VectorClock.first("b");
+    VectorClock c = VectorClock.first("c");
+
+    final VectorClockHistory history = VectorClockHistory.of(a.node());
+    history.append(a);
+
+    /* C cause B */
+    c = c.next();
+    b = b.add(c);
+
+    /* B cause A */
+    b = b.next();
+    a = a.add(b);
+    history.append(a);
+
+    /* B cause C */
+    b = b.next();
+    c = c.add(b);
+
+    /* A cause B */
+    a = a.next();
+    history.append(a);
+    b = b.add(a);
+
+    /* C cause A */
+    final VectorClock sent = c.next();
+    c = sent;
+    a = a.add(c);
+    history.append(a);
+
+    Assert.assertEquals(4, history.size());
+    Assert.assertEquals("[a:0]", history.get(0).toString());
+    Assert.assertEquals("[a:1,b:2,c:1]", history.get(1).toString());
+    Assert.assertEquals("[a:2,b:2,c:1]", history.get(2).toString());
+    Assert.assertEquals("[a:3,b:3,c:3]", history.get(3).toString());
+
+    Assert.assertEquals(OptionalInt.of(1), history.firstSeen(StringNode.of("b"), LongVersion.of(2)));
+    Assert.assertEquals(OptionalInt.of(3), history.firstSeen(StringNode.of("b"), LongVersion.of(3)));
+    Assert.assertEquals(OptionalInt.empty(), history.firstSeen(StringNode.of("b"), LongVersion.of(4)));
+    Assert.assertEquals(OptionalInt.empty(), history.firstSeen(StringNode.of("d"), LongVersion.first()));
+
+    Assert.assertEquals(OptionalInt.of(3), history.firstDominating(sent));
+    Assert.assertEquals(OptionalInt.empty(), history.firstDominating(b));
+    Assert.assertFalse(history.dominates(2, sent));
+    Assert.assertTrue(history.dominates(3, sent));
+
+    /* The history agrees with the clocks it rebuilds */
+    for (int i = 0; i < history.size(); i++) {
+      for (final VectorClock other : new VectorClock[] { sent, b, c, history.get(0), history.get(3) }) {
+        Assert.assertEquals(history.get(i).dominates(other), history.dominates(i, other));
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.javacreed.api.veclock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VectorClockTableTest {
+
+  @Test
+  public void antiEntropy() {
+    final VectorClockTable<String> a = VectorClockTable.create(StringNode.of("A"));
+    final VectorClockTable<String> b = VectorClockTable.create(StringNode.of("B"));
+
+    a.merge("key", VectorClock.first("client"));
+    b.next("key");
+    a.next("key");
+
+    /* Exchange the clocks until neither replica changes */
+    int rounds = 0;
+    while (true) {
+      final VectorClock beforeA = a.get("key").get();
+      final VectorClock beforeB = b.get("key").get();
+      b.merge("key", beforeA);
+      a.merge("key", b.get("key").get());
+      rounds++;
+
+      if (beforeA == a.get("key").get() && beforeB == b.get("key").get()) {
+        break;
+      }
+      Assert.assertTrue("Replicas did not converge", rounds < 3);
+    }
+
+    Assert.assertEquals(2, rounds);
+    Assert.assertEquals(a.get("key").get().versions(), b.get("key").get().versions());
+    Assert.assertEquals("[A:1,B:0,client:0]", a.get("key").get().toString());
+    Assert.assertTrue(a.get("key").get().dominates(b.get("key").get()));
+    Assert.assertTrue(b.get("key").get().dominates(a.get("key").get()));
+  }
+
+  @Test
+  public void compareAndSet() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClockTable<String> table = VectorClockTable.create(a.node());
+
+    Assert.assertTrue(table.compareAndSet("key", null, a));
+    Assert.assertFalse(table.compareAndSet("key", null, a.next()));
+    Assert.assertFalse(table.compareAndSet("key", a.next(), a.next()));
+    Assert.assertTrue(table.compareAndSet("key", a, a.next()));
+    Assert.assertEquals(a.next(), table.get("key").get());
+  }
+
+  @Test
+  public void concurrentMerge() throws Exception {
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("server"));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<VectorClock>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final VectorClock first = VectorClock.first("n" + i);
+        futures.add(executor.submit(() -> {
+          VectorClock clock = first;
+          for (int j = 0; j < 1000; j++) {
+            clock = clock.next();
+            table.merge("key", clock);
+          }
+          return clock;
+        }));
+      }
+
+      final List<VectorClock> sent = new ArrayList<>();
+      for (final Future<VectorClock> future : futures) {
+        sent.add(future.get());
+      }
+
+      final VectorClock merged = table.get("key").get();
+      Assert.assertEquals(table.node(), merged.node());
+      Assert.assertEquals(9, merged.size());
+      sent.forEach(clock -> Assert.assertTrue(merged.dominates(clock)));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void forEach() {
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("s"), 4);
+    table.merge("x", VectorClock.first("a"));
+    table.merge("y", VectorClock.first("b"));
+    Assert.assertEquals(2, table.size());
+
+    final Map<String, VectorClock> visited = new HashMap<>();
+    table.forEach(visited::put);
+    Assert.assertEquals("[a:0,s:0]", visited.get("x").toString());
+    Assert.assertEquals("[b:0,s:0]", visited.get("y").toString());
+
+    Assert.assertEquals(visited.get("x"), table.remove("x").get());
+    Assert.assertFalse(table.get("x").isPresent());
+  }
+
+  @Test
+  public void merge() {
+    final VectorClock b = VectorClock.first("b").next();
+    final VectorClock c = VectorClock.first("c");
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("a"));
+
+    /* The first clock of an absent key belongs to the table's node */
+    final VectorClock first = table.merge("key", b);
+    Assert.assertEquals(table.node(), first.node());
+    Assert.assertEquals("[a:0,b:1]", first.toString());
+
+    /* Nothing changes when the incoming clock was already observed */
+    Assert.assertSame(first, table.merge("key", b));
+
+    /* Merging never moves the local version */
+    final VectorClock merged = table.merge("key", c);
+    Assert.assertEquals("[a:0,b:1,c:0]", merged.toString());
+    Assert.assertSame(merged, table.get("key").get());
+  }
+
+  @Test
+  public void mergeLocalClock() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClockTable<String> table = VectorClockTable.create(a.node());
+
+    final VectorClock next = a.next();
+    Assert.assertEquals(a, table.merge("key", a));
+    Assert.assertEquals(next, table.merge("key", next));
+    Assert.assertEquals(next, table.merge("key", a));
+  }
+
+  @Test
+  public void mergeConcurrentClocksOfSameNode() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("s"));
+
+    table.compareAndSet("key", null, a.add(VectorClock.first("b")));
+    final VectorClock merged = table.merge("key", a.add(VectorClock.first("c")));
+    Assert.assertEquals("[a:1,b:0,c:0]", merged.toString());
+  }
+
+  @Test
+  public void mergeSameWriterTwice() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("s"));
+
+    table.merge("key", a);
+    final VectorClock merged = table.merge("key", a.next());
+    Assert.assertEquals("[a:1,s:0]", merged.toString());
+    Assert.assertTrue(merged.dominates(a.next()));
+  }
+
+  @Test
+  public void next() {
+    final VectorClockTable<String> table = VectorClockTable.create(StringNode.of("s"));
+
+    Assert.assertEquals("[s:0]", table.next("key").toString());
+    Assert.assertEquals("[s:1]", table.next("key").toString());
+
+    table.merge("key", VectorClock.first("a").next());
+    Assert.assertEquals("[a:1,s:2]", table.next("key").toString());
+
+    /* A clock of another node is replaced by a clock of this table's node */
+    table.compareAndSet("other", null, VectorClock.first("a").add(StringNode.of("s"), LongVersion.of(4)));
+    final VectorClock next = table.next("other");
+    Assert.assertEquals(table.node(), next.node());
+    Assert.assertEquals("[a:1,s:5]", next.toString());
+  }
+
+  @Test
+  public void putIfDominates() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClock b = VectorClock.first("b");
+    final VectorClockTable<String> table = VectorClockTable.create(a.node());
+
+    Assert.assertTrue(table.putIfDominates("key", a));
+    Assert.assertFalse(table.putIfDominates("key", b));
+    Assert.assertTrue(table.putIfDominates("key", a.add(b)));
+    Assert.assertFalse(table.putIfDominates("key", a.next()));
+    Assert.assertEquals(a.add(b), table.get("key").get());
+  }
+}
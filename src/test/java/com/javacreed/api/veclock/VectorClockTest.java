@@ -1,10 +1,66 @@
 package com.javacreed.api.veclock;
 
+import java.util.Locale;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 public class VectorClockTest {
 
+  @Test
+  public void dominates() {
+    final VectorClock a = VectorClock.first("a");
+    final VectorClock b = VectorClock.first("b");
+    final VectorClock ab = a.add(b);
+
+    Assert.assertTrue(a.dominates(a));
+    Assert.assertTrue(ab.dominates(a));
+    Assert.assertTrue(ab.dominates(b));
+    Assert.assertFalse(a.dominates(ab));
+    Assert.assertFalse(a.dominates(b));
+    Assert.assertFalse(ab.dominates(b.next()));
+  }
+
+  @Test
+  public void max() {
+    final VectorClock a = VectorClock.first("a").next();
+    final VectorClock b = VectorClock.first("b").next().next();
+
+    final VectorClock max = a.max(b);
+    Assert.assertEquals(a.node(), max.node());
+    Assert.assertEquals("[a:1,b:2]", max.toString());
+    Assert.assertSame(max, max.max(b));
+    Assert.assertSame(max, max.max(a));
+    Assert.assertEquals("[a:1,b:2]", b.max(max).toString());
+  }
+
+  @Test
+  public void ignoreCaseFolding() {
+    /* The dotless i and the long s are equal to i and s respectively, when ignoring case */
+    for (final String[] names : new String[][] { { "i", "\u0131" }, { "s", "\u017f" }, { "Node", "NODE" } }) {
+      final StringNode node = StringNode.of(names[0]);
+      final StringNode other = StringNode.of(names[1]);
+      Assert.assertEquals(node, other);
+      Assert.assertEquals(node.hashCode(), other.hashCode());
+
+      final VectorClock clock = VectorClock.first("x").add(node, LongVersion.first());
+      Assert.assertTrue(clock.version(other).isPresent());
+    }
+  }
+
+  @Test
+  public void ignoreCaseInAnyLocale() {
+    final Locale locale = Locale.getDefault();
+    try {
+      /* The Turkish locale lower cases I into a dotless i */
+      Locale.setDefault(new Locale("tr", "TR"));
+      final VectorClock clock = VectorClock.first("a").add(StringNode.of("I"), LongVersion.first());
+      Assert.assertTrue(clock.version(StringNode.of("i")).isPresent());
+    } finally {
+      Locale.setDefault(locale);
+    }
+  }
+
   @Test
   public void multipleClocks() {
     /* Based on the image shown in Wiki: https://en.wikipedia.org/wiki/Vector_clock#/media/File:Vector_Clock.svg */